@@ -2,21 +2,45 @@
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
 
 /**
  ** Canvas class creates a JPanel and then calls the rayTrace method in RayTracer to
  ** create the image and then draws in entire image onto the screen using paintComponent.
  ** This class also sets the light sources, camera position, and dimension of the image.
+ ** The camera orbits around the center of the sponge with the arrow keys or by dragging the mouse.
+ ** In time-budget mode, frames are rendered at whatever resolution and sponge level keeps them within
+ ** the target frame time and are stretched to fill the panel. Once the camera has been still for a while, a full quality
+ ** frame is rendered on a background thread and shown when it is done, unless the camera moves first.
 **/
 public class Canvas extends JPanel {
 
+  /** How long the camera must be still before a full quality frame is rendered in time-budget mode **/
+  private static final int STILL_CAMERA_DELAY_MILLIS = 500;
+  /** How far the camera orbits for each arrow key press, and for each pixel the mouse is dragged **/
+  private static final double KEY_ORBIT_RADIANS = Math.toRadians(5.0);
+  private static final double DRAG_ORBIT_RADIANS_PER_PIXEL = Math.toRadians(0.5);
+  /** The camera can't go right over the top or bottom of the sponge, where the view plane's up vector would be parallel to the view direction **/
+  private static final double MAX_ELEVATION_RADIANS = Math.toRadians(85.0);
+
   private RayTracer rayTracer;
   private Point3D camera;
   private Point3D lightBlue;
   private Point3D lightRed;
   private Dimension imageResolution;
   private ArrayList<LightSource> lightSources;
+  private FrameTimeBudget frameTimeBudget;
+  private Timer stillCameraTimer;
+  private RayTracer fullQualityRayTracer;
+  private SwingWorker<BufferedImage, Void> fullQualityRender;
+  private BufferedImage fullQualityImage;
+  private Point lastDragPoint;
 
   /** Set size and background color of JPanel and instantiate variables **/
   public Canvas() {
@@ -33,15 +57,156 @@ public class Canvas extends JPanel {
 
     setPreferredSize(imageResolution);
     setBackground(Color.white);
+    addCameraControls();
+  }
+
+  /** Time-budget mode: each frame should take at most targetFrameMillis to render while the camera is moving **/
+  public Canvas(long targetFrameMillis) {
+    this();
+    this.frameTimeBudget = new FrameTimeBudget(targetFrameMillis, rayTracer.getSpongeLevel());
+    /** Once the camera has been still for long enough, render one frame at full quality **/
+    this.stillCameraTimer = new Timer(STILL_CAMERA_DELAY_MILLIS, e -> startFullQualityRender());
+    this.stillCameraTimer.setRepeats(false);
+    this.stillCameraTimer.start();
+  }
+
+  /** Arrow keys orbit the camera by a fixed step, and dragging the mouse orbits it by how far the mouse moved **/
+  private void addCameraControls() {
+    setFocusable(true);
+    addKeyListener(new KeyAdapter() {
+      public void keyPressed(KeyEvent e) {
+        switch(e.getKeyCode()) {
+          case KeyEvent.VK_LEFT: orbitCamera(-KEY_ORBIT_RADIANS, 0.0); break;
+          case KeyEvent.VK_RIGHT: orbitCamera(KEY_ORBIT_RADIANS, 0.0); break;
+          case KeyEvent.VK_UP: orbitCamera(0.0, -KEY_ORBIT_RADIANS); break;
+          case KeyEvent.VK_DOWN: orbitCamera(0.0, KEY_ORBIT_RADIANS); break;
+          default: break;
+        }
+      }
+    });
+    MouseAdapter dragHandler = new MouseAdapter() {
+      public void mousePressed(MouseEvent e) {
+        lastDragPoint = e.getPoint();
+        requestFocusInWindow();
+      }
+      public void mouseDragged(MouseEvent e) {
+        orbitCamera((e.getX() - lastDragPoint.x) * DRAG_ORBIT_RADIANS_PER_PIXEL, (e.getY() - lastDragPoint.y) * DRAG_ORBIT_RADIANS_PER_PIXEL);
+        lastDragPoint = e.getPoint();
+      }
+    };
+    addMouseListener(dragHandler);
+    addMouseMotionListener(dragHandler);
+  }
+
+  /**
+   ** Moves the camera around the center of the scene (0,0,0), keeping its distance, by converting its position to an azimuth angle
+   ** (around the y axis) and an elevation angle (above or below the x-z plane), adding the passed in angles, and converting back.
+   **/
+  private void orbitCamera(double azimuthChange, double elevationChange) {
+    double radius = camera.magnitude();
+    double azimuth = Math.atan2(camera.getZ(), camera.getX()) + azimuthChange;
+    double elevation = Math.asin(camera.getY()/radius) + elevationChange;
+    elevation = Math.max(-MAX_ELEVATION_RADIANS, Math.min(MAX_ELEVATION_RADIANS, elevation));
+    setCameraPosition(new Point3D(radius * Math.cos(elevation) * Math.cos(azimuth),
+                                  radius * Math.sin(elevation),
+                                  radius * Math.cos(elevation) * Math.sin(azimuth)));
+  }
+
+  /** Moves the camera and repaints. In time-budget mode, frames go back to fitting the budget until the camera is still again **/
+  public void setCameraPosition(Point3D camera) {
+    this.camera = camera;
+    if(frameTimeBudget != null) {
+      cancelFullQualityRender();
+      stillCameraTimer.restart();
+    }
+    repaint();
+  }
+
+  /**
+   ** Renders a frame at full resolution and sponge level on a background thread, so camera moves are still handled right away
+   ** while it renders. It uses its own RayTracer so it doesn't share any state with the interactive frames rendered in paintComponent.
+   ** When it is done, and as long as the camera hasn't moved since it started, it replaces the interactive frame on the screen.
+   **/
+  private void startFullQualityRender() {
+    final RayTracer backgroundRayTracer = new RayTracer(rayTracer.usesSinglePrecisionTraversal());
+    backgroundRayTracer.setSpongeLevel(frameTimeBudget.getFullSpongeLevel());
+    final Point3D renderCamera = camera;
+    fullQualityRayTracer = backgroundRayTracer;
+    fullQualityRender = new SwingWorker<BufferedImage, Void>() {
+      protected BufferedImage doInBackground() {
+        backgroundRayTracer.rayTrace(renderCamera, imageResolution, lightSources);
+        return backgroundRayTracer.getImage();
+      }
+
+      protected void done() {
+        /** Cancelling a render that has already finished does nothing, so also make sure the camera hasn't moved since this render started **/
+        if(isCancelled() || fullQualityRender != this) {
+          return;
+        }
+        fullQualityRender = null;
+        fullQualityRayTracer = null;
+        try {
+          fullQualityImage = get();
+          repaint();
+        } catch (InterruptedException | ExecutionException e) {
+          //Keep showing the interactive frame if the full quality render failed
+        }
+      }
+    };
+    fullQualityRender.execute();
+  }
+
+  /** Stops the full quality frame being rendered in the background, if any, and stops showing the last one since the camera has moved **/
+  private void cancelFullQualityRender() {
+    if(fullQualityRender != null) {
+      fullQualityRender.cancel(false);
+      fullQualityRayTracer.cancel();
+      fullQualityRender = null;
+      fullQualityRayTracer = null;
+    }
+    fullQualityImage = null;
   }
 
   /** Method draws to the JPanel **/
   public void paintComponent(Graphics g) {
     super.paintComponent(g);
     Graphics2D g2d = (Graphics2D)g;
-    /** Call rayTrace to create the image **/
-    rayTracer.rayTrace(camera, imageResolution, lightSources);
-    /** Draw the BufferedImage to the screen **/
-    g2d.drawImage(rayTracer.getImage(), 0, 0, this);
+    BufferedImage frame;
+    if(frameTimeBudget == null) {
+      /** Call rayTrace to create the image **/
+      rayTracer.rayTrace(camera, imageResolution, lightSources);
+      frame = rayTracer.getImage();
+    } else if(fullQualityImage != null) {
+      /** Camera has been still and the full quality frame has finished rendering in the background **/
+      frame = fullQualityImage;
+    } else {
+      /** Render with the current budget settings and time the frame so the settings for the next one can be adjusted **/
+      rayTracer.setSpongeLevel(frameTimeBudget.getSpongeLevel());
+      long frameStart = System.nanoTime();
+      rayTracer.rayTrace(camera, frameTimeBudget.getRenderResolution(imageResolution), lightSources);
+      frameTimeBudget.recordFrameTime(System.nanoTime() - frameStart);
+      frame = rayTracer.getImage();
+    }
+    /** Draw the BufferedImage to the screen, upscaling it to the panel size if it was rendered at a lower resolution **/
+    g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g2d.drawImage(frame, 0, 0, getWidth(), getHeight(), this);
+  }
+
+  public Point3D getCameraPosition() {
+    return camera;
+  }
+
+  public FrameTimeBudget getFrameTimeBudget() {
+    return frameTimeBudget;
+  }
+
+  /** Whether a full quality frame has finished rendering in the background, whether or not it has been shown yet. Used by CanvasFrameBudgetCheck **/
+  boolean isFullQualityRenderFinished() {
+    return fullQualityRender != null && fullQualityRender.isDone();
+  }
+
+  /** Whether the full quality frame rendered in the background is what's currently shown **/
+  public boolean isShowingFullQualityFrame() {
+    return fullQualityImage != null;
   }
 }
@@ -6,12 +6,17 @@
 public class CubeIntersection {
 
     private double tValue;
+    private int entryAxis;
     private Point3D intersectionPoint;
     private Point3D normalVector;
 
-    /** Constructor that sets the t-value at which this intersection occurs. */
-    public CubeIntersection(double tValue) {
+    /**
+     * Constructor that sets the t-value at which this intersection occurs and the axis (0 = x, 1 = y, 2 = z)
+     * of the slab whose bounding plane produced that t-value.
+     */
+    public CubeIntersection(double tValue, int entryAxis) {
         this.tValue = tValue;
+        this.entryAxis = entryAxis;
     }
 
     /**
@@ -24,36 +29,17 @@ public class CubeIntersection {
     }
 
     /**
-     * Finds the normal at the point of intersection by determining which face of the cube the point is on and finding the normal of the face.
-     * This works because the cube is always aligned with the coordinate axes (because the sponge is), so at any face of the cube,
-     * one of either the x, y, or z-coordinates is held constant. The method checks the coordinates of the intersection point against the coordinate
-     * which is held constant at each face of the cube to determine which face contains the intersection point.
-     * The orientation of each face is known and is always the same since the sponge and subsequently the cube are axis-aligned,
-     * so the normal vector at each face is simply the unit vector pointing out at that face.
+     * Finds the normal at the point of intersection using the axis of the slab that produced the entry t-value.
+     * This works because the cube is always aligned with the coordinate axes (because the sponge is), so the face the ray enters through
+     * is the bounding plane of that slab, and its normal is the unit vector along that axis pointing back against the ray's direction.
+     * Unlike comparing the intersection point's coordinates to the cube's faces, this needs no margin of error,
+     * so it still works when the cubes at the deepest level of the sponge become very small.
      */
-    public void findIntersectedFaceNormal(Point3D backBottomLeftVertex, Point3D frontUpperRightVertex) {
-        // Left face
-        if(this.isAlmostEqual(this.intersectionPoint.getX(), backBottomLeftVertex.getX())) { this.normalVector = new Point3D(-1, 0, 0); }
-
-        // Right face
-        if(this.isAlmostEqual(this.intersectionPoint.getX(), frontUpperRightVertex.getX())) { this.normalVector = new Point3D(1, 0, 0); }
-
-        // Top face
-        if(this.isAlmostEqual(this.intersectionPoint.getY(), backBottomLeftVertex.getY())) { this.normalVector = new Point3D(0, -1, 0); }
-
-        // Bottom face
-        if(this.isAlmostEqual(this.intersectionPoint.getY(), frontUpperRightVertex.getY())) { this.normalVector = new Point3D(0, 1, 0); }
-
-        // Front face
-        if(this.isAlmostEqual(this.intersectionPoint.getZ(), backBottomLeftVertex.getZ())) { this.normalVector = new Point3D(0, 0, -1); }
-
-        // Back face
-        if(this.isAlmostEqual(this.intersectionPoint.getZ(), frontUpperRightVertex.getZ())) { this.normalVector = new Point3D(0, 0, 1); }
-    }
-
-    /** Checks whether one value is equal to another within a margin of error of 0.001. */
-    private boolean isAlmostEqual(double a, double b) {
-        return (Math.abs(a - b) < 0.001);
+    public void findIntersectedFaceNormal(Point3D ray) {
+        double[] rayComponents = new double[] {ray.getX(), ray.getY(), ray.getZ()};
+        double[] normalComponents = new double[3];
+        normalComponents[this.entryAxis] = (rayComponents[this.entryAxis] > 0) ? -1 : 1;
+        this.normalVector = new Point3D(normalComponents[0], normalComponents[1], normalComponents[2]);
     }
 
     public double getTValue() { return tValue; }
@@ -0,0 +1,96 @@
+import java.awt.Dimension;
+
+/**
+ * Class which keeps interactive frames within a target frame time. It tracks a smoothed average of how long recent frames took to render
+ * and, between frames, adjusts the resolution the image is rendered at (as a fraction of the full resolution) and the number of levels of the sponge.
+ * The resolution is changed first since frame time is roughly proportional to the number of pixels. Only once the resolution is as low as allowed
+ * and frames are still too slow is a level of the sponge dropped, and only once frames are back at full resolution with plenty of time to spare is it added back.
+ */
+public class FrameTimeBudget {
+
+    private static final double MIN_RENDER_SCALE = 0.25;
+    private static final int MIN_SPONGE_LEVEL = 1;
+    /** Weight of the newest frame in the average, so a single slow or fast frame doesn't make the resolution jump around. */
+    private static final double NEWEST_FRAME_WEIGHT = 0.3;
+    /** Frames must take less than this fraction of the target before a level of the sponge is added back, so levels don't flip back and forth. */
+    private static final double ADD_LEVEL_FRACTION = 0.5;
+    /** Number of frames that must be rendered at a sponge level before the level can change again, so the average has settled first. */
+    private static final int MIN_FRAMES_PER_LEVEL = 3;
+
+    private final long targetFrameNanos;
+    private final int fullSpongeLevel;
+    private double renderScale;
+    private int spongeLevel;
+    private double averageFullFrameNanos;
+    private int framesAtSpongeLevel;
+
+    /**
+     * Constructor which sets the target frame time and the number of levels of the sponge at full quality. Starts out at the lowest resolution
+     * (and full sponge level) so the first frame is cheap, and works its way up from there. Throws an IllegalArgumentException if the target frame time is not positive.
+     */
+    public FrameTimeBudget(long targetFrameMillis, int fullSpongeLevel) {
+        if(targetFrameMillis <= 0) {
+            throw new IllegalArgumentException("Target frame time must be positive, got " + targetFrameMillis + " ms");
+        }
+        this.targetFrameNanos = targetFrameMillis * 1000000L;
+        this.fullSpongeLevel = fullSpongeLevel;
+        this.renderScale = MIN_RENDER_SCALE;
+        this.spongeLevel = fullSpongeLevel;
+        this.averageFullFrameNanos = -1;
+        this.framesAtSpongeLevel = 0;
+    }
+
+    /**
+     * Records how long the last frame (rendered with the current settings) took and adjusts the settings for the next one.
+     * Since the number of pixels grows with the square of the render scale, each frame time is divided by the square of its scale
+     * to estimate what a full resolution frame would have cost, and the next scale is the square root of the target over the average of those estimates.
+     * The sponge level is only changed once frames at the lowest or highest scale are over or well under budget on average
+     * (never because of a single slow or fast frame), and only after a few frames at the current level. When it changes,
+     * the average is reset because frames at the new level cost a different amount.
+     */
+    public void recordFrameTime(long frameNanos) {
+        double fullFrameNanos = frameNanos / (this.renderScale * this.renderScale);
+        if(this.averageFullFrameNanos < 0) {
+            this.averageFullFrameNanos = fullFrameNanos;
+        } else {
+            this.averageFullFrameNanos = (NEWEST_FRAME_WEIGHT * fullFrameNanos) + ((1.0 - NEWEST_FRAME_WEIGHT) * this.averageFullFrameNanos);
+        }
+
+        this.framesAtSpongeLevel++;
+
+        // Smoothed cost of a frame at the scale the last frame was rendered at
+        double averageFrameNanos = this.averageFullFrameNanos * this.renderScale * this.renderScale;
+        boolean levelSettled = this.framesAtSpongeLevel >= MIN_FRAMES_PER_LEVEL;
+        boolean overBudget = averageFrameNanos > this.targetFrameNanos;
+        boolean wellUnderBudget = averageFrameNanos < (ADD_LEVEL_FRACTION * this.targetFrameNanos);
+        if(levelSettled && this.renderScale == MIN_RENDER_SCALE && overBudget && this.spongeLevel > MIN_SPONGE_LEVEL) {
+            this.changeSpongeLevel(this.spongeLevel - 1);
+            return;
+        }
+        if(levelSettled && this.renderScale == 1.0 && wellUnderBudget && this.spongeLevel < this.fullSpongeLevel) {
+            this.changeSpongeLevel(this.spongeLevel + 1);
+            return;
+        }
+        double scale = Math.sqrt(this.targetFrameNanos / Math.max(this.averageFullFrameNanos, 1.0));
+        this.renderScale = Math.max(MIN_RENDER_SCALE, Math.min(1.0, scale));
+    }
+
+    /** Changes the sponge level and starts a new average, since frames at the new level cost a different amount. */
+    private void changeSpongeLevel(int spongeLevel) {
+        this.spongeLevel = spongeLevel;
+        this.averageFullFrameNanos = -1;
+        this.framesAtSpongeLevel = 0;
+    }
+
+    /** Scales the full resolution by the current render scale, keeping at least one pixel in each direction. */
+    public Dimension getRenderResolution(Dimension fullResolution) {
+        int width = Math.max(1, (int) Math.round(fullResolution.getWidth() * this.renderScale));
+        int height = Math.max(1, (int) Math.round(fullResolution.getHeight() * this.renderScale));
+        return new Dimension(width, height);
+    }
+
+    public double getRenderScale() { return renderScale; }
+    public int getSpongeLevel() { return spongeLevel; }
+    public int getFullSpongeLevel() { return fullSpongeLevel; }
+
+}
@@ -10,13 +10,27 @@ import javax.swing.*;
 public class Main {
 
   public static void main(String args[]) {
+    /** An optional argument gives a target frame time in milliseconds for time-budget mode **/
+    long targetFrameMillis = 0;
+    if(args.length > 0) {
+      try {
+        targetFrameMillis = Long.parseLong(args[0]);
+      } catch (NumberFormatException e) {
+        targetFrameMillis = -1;
+      }
+      if(targetFrameMillis <= 0) {
+        System.err.println("Usage: java Main [targetFrameMillis] - targetFrameMillis must be a positive whole number of milliseconds");
+        System.exit(1);
+      }
+    }
+
     /** Create two JFrames **/
     JFrame canvasFrame = new JFrame();
     canvasFrame.setTitle("Menger Sponge"); //Label the window
     canvasFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); //Quits the program is window is closed
 
     /** Creates classes to be added to the JFrames **/
-    Canvas canvas = new Canvas();
+    Canvas canvas = (args.length > 0) ? new Canvas(targetFrameMillis) : new Canvas();
 
     /** Set the layout for the CubeCanvas frame **/
     canvasFrame.setLayout(new BorderLayout());
@@ -25,6 +39,7 @@ public class Main {
     canvasFrame.pack();
     canvasFrame.setVisible(true); //Allows frame to be seen
     canvasFrame.setResizable(false);//Cannot resize the frame
+    canvas.requestFocusInWindow(); //Lets the arrow keys move the camera straight away
 
   }
 }
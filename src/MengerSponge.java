@@ -11,6 +11,7 @@ import java.util.List;
 public class MengerSponge {
 
     private final SpongeCube startingCube;
+    private final SinglePrecisionTraversal singlePrecisionTraversal;
 
     /**
      * Constructor which creates the initial cube which represents the first level of the Menger sponge
@@ -18,7 +19,17 @@ public class MengerSponge {
      * This cube is then broken down into smaller cubes at each subsequent level.
      */
     public MengerSponge(Point3D backBottomLeftVertex, double startingEdgeLength, int spongeLevel) {
+        this(backBottomLeftVertex, startingEdgeLength, spongeLevel, false);
+    }
+
+    /**
+     * Constructor which also allows for choosing the single precision traversal, which rebases the ray into the local frame of each cube
+     * as it descends through the sponge (see SinglePrecisionTraversal). It is faster and keeps the same precision at any level,
+     * so it should be used for sponges with many levels, where the deepest cubes become too small for world coordinates.
+     */
+    public MengerSponge(Point3D backBottomLeftVertex, double startingEdgeLength, int spongeLevel, boolean useSinglePrecisionTraversal) {
         this.startingCube = new SpongeCube(backBottomLeftVertex, startingEdgeLength, spongeLevel);
+        this.singlePrecisionTraversal = useSinglePrecisionTraversal ? new SinglePrecisionTraversal(this.startingCube) : null;
     }
 
     /**
@@ -27,6 +38,9 @@ public class MengerSponge {
      * Returns a CubeIntersection object if an intersection is found, and null if not.
      */
     public CubeIntersection intersectWithRay(Point3D rayStartPoint, Point3D ray) {
+        if(this.singlePrecisionTraversal != null) {
+            return this.singlePrecisionTraversal.intersectWithRay(rayStartPoint, ray);
+        }
         List<SpongeCube> intersectedCubes = this.findIntersectedCubes(rayStartPoint, ray);
         if(!intersectedCubes.isEmpty()) {
             SpongeCube intersectedCube = this.findNearestIntersectedCube(intersectedCubes);
@@ -72,7 +86,7 @@ public class MengerSponge {
                                 double x = backBottomLeftX + (xIndex * edgeIncrement);
                                 // If the cube is in the middle of the top or bottom layer or in the middle row or column of the middle layer,
                                 // don't add it to the queue of cubes to be checked because this is where a hole is meant to be in the sponge
-                                if((yIndex == 1 && (zIndex == 1 || xIndex == 1)) || (zIndex == 1 && xIndex == 1)) {
+                                if(isHole(xIndex, yIndex, zIndex)) {
                                     continue;
                                 }
                                 cubesToCheck.add(new SpongeCube(new Point3D(x, y, z), edgeIncrement, nextLevel));
@@ -85,6 +99,14 @@ public class MengerSponge {
         return intersectedCubes;
     }
 
+    /**
+     * Checks whether the smaller cube at the specified x, y, and z-indices (each 0 to 2) of a broken down cube is one of the 7 holes in the sponge:
+     * the middle of the top or bottom layer, or the middle row or column of the middle layer.
+     */
+    static boolean isHole(int xIndex, int yIndex, int zIndex) {
+        return (yIndex == 1 && (zIndex == 1 || xIndex == 1)) || (zIndex == 1 && xIndex == 1);
+    }
+
     /**
      * Of the cubes intersected by the ray at the deepest level of the sponge,
      * returns the one which gets intersected first (nearest cube to the starting point of the ray)
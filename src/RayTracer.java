@@ -21,15 +21,37 @@ public class RayTracer {
   /** Create an instance of MengerSponge to create the cube shape to put in the scene **/
   private MengerSponge mengerSponge;
 
+  /** Number of levels the MengerSponge is broken down into **/
+  private int spongeLevel;
+
+  /** Whether the MengerSponge is traversed in single precision (faster, rebases rays into each cube's local frame) or double precision **/
+  private boolean useSinglePrecisionTraversal;
+
   /** The calculated color values for each light source **/
   private int blueValue, redValue;
 
   /** Values for the lighting variables to calculate each pixel color **/
   private double diffuseLightBlue, diffuseLightRed, specularReflectionLightBlue, specularReflectionLightRed;
 
-  /** Constructor instantiates a new MengerSponge **/
+  /** Set from another thread to stop rendering, e.g. when the frame being rendered in the background is no longer needed **/
+  private volatile boolean cancelled;
+
+  /** Constructor instantiates a new MengerSponge that is traversed in single precision **/
   public RayTracer() {
-    mengerSponge = new MengerSponge(new Point3D(-500, -500, -500.0), 1000.0, 3);
+    this(true);
+  }
+
+  /** Constructor instantiates a new MengerSponge that is traversed in single or double precision **/
+  public RayTracer(boolean useSinglePrecisionTraversal) {
+    this.useSinglePrecisionTraversal = useSinglePrecisionTraversal;
+    setSpongeLevel(3);
+  }
+
+  /** Rebuilds the MengerSponge with a different number of levels, e.g. so an interactive frame can be rendered with less detail **/
+  public void setSpongeLevel(int spongeLevel) {
+    if(mengerSponge != null && this.spongeLevel == spongeLevel) { return; }
+    this.spongeLevel = spongeLevel;
+    mengerSponge = new MengerSponge(new Point3D(-500, -500, -500.0), 1000.0, spongeLevel, useSinglePrecisionTraversal);
   }
 
   /** Render method takes in the current image being used, an x and y location, and color values for the red and blue light **/
@@ -56,6 +78,10 @@ public class RayTracer {
     image = new BufferedImage((int)imgResolution.getWidth(), (int)imgResolution.getHeight(),  BufferedImage.TYPE_INT_RGB);
     /** Loop through each y and x coordinates, going row by row **/
     for(int y = 0; y < imgResolution.getHeight(); y++) {
+      /** Stop at the start of the next row if rendering was cancelled **/
+      if(cancelled) {
+        return;
+      }
       for(int x = 0; x < imgResolution.getWidth(); x++) {
         /** Get the correct coordinates of the center of current x,y pixel using the ViewPlane **/
         Point3D fieldOfViewCoordinate = plane.getNewCoordinates(x/imgResolution.getWidth(), y/imgResolution.getHeight());
@@ -120,7 +146,20 @@ public class RayTracer {
     }
   }
 
+  /** Stops a rayTrace call in progress (on another thread) at the start of its next row. Once cancelled, this RayTracer stops every rayTrace call **/
+  public void cancel() {
+    cancelled = true;
+  }
+
   public BufferedImage getImage() {
     return image;
   }
+
+  public int getSpongeLevel() {
+    return spongeLevel;
+  }
+
+  public boolean usesSinglePrecisionTraversal() {
+    return useSinglePrecisionTraversal;
+  }
 }
@@ -0,0 +1,195 @@
+
+/**
+ * Class which finds the first intersection of a ray with the Menger sponge using single precision (float) math.
+ * Instead of testing every sub-cube in world coordinates, the ray is rebased into the local frame of each cube as the traversal descends:
+ * in its own frame every cube spans [0, 3] on each axis, so its 27 sub-cubes sit on integer coordinates, and the ray's start point
+ * is moved up to where the ray enters the cube. The start point in each new frame is computed in double precision from the world ray
+ * and the cube's position rather than from the previous frame's float start point, so rounding errors are not carried down (and scaled up)
+ * from level to level. This keeps all coordinates the float math sees between roughly -6 and 9, with the same precision at any level of the sponge.
+ * The t-value is the same in every frame because the ray's direction vector is scaled along with the coordinates.
+ */
+public class SinglePrecisionTraversal {
+
+    private final Point3D backBottomLeftVertex;
+    private final double edgeLength;
+    private final int spongeLevel;
+
+    /**
+     * Result of a slab test: the entry t-value and the axis (0 = x, 1 = y, 2 = z) of the slab which produced it.
+     * One is created per ray and reused for every slab test along it.
+     */
+    private static class SlabHit {
+        float entryT;
+        int entryAxis;
+    }
+
+    /** Constructor which sets up the starting cube of the sponge that rays will be traversed through. */
+    public SinglePrecisionTraversal(SpongeCube startingCube) {
+        this.backBottomLeftVertex = startingCube.getBackBottomLeftVertex();
+        this.edgeLength = startingCube.getEdgeLength();
+        this.spongeLevel = startingCube.getLevelInSponge();
+    }
+
+    /**
+     * Finds the first point of intersection of a ray with the sponge. Converts the ray into the local frame of the starting cube
+     * (done in double precision so the subtraction of the cube's position doesn't lose precision), checks that the ray hits the starting cube at all,
+     * and then descends through the sponge one level at a time. Returns a CubeIntersection object if an intersection is found, and null if not.
+     */
+    public CubeIntersection intersectWithRay(Point3D rayStartPoint, Point3D ray) {
+        double frameScale = 3.0 / this.edgeLength;
+        float[] localStart = new float[] {(float) ((rayStartPoint.getX() - this.backBottomLeftVertex.getX()) * frameScale),
+                                          (float) ((rayStartPoint.getY() - this.backBottomLeftVertex.getY()) * frameScale),
+                                          (float) ((rayStartPoint.getZ() - this.backBottomLeftVertex.getZ()) * frameScale)};
+        float[] localRay = new float[] {(float) (ray.getX() * frameScale), (float) (ray.getY() * frameScale), (float) (ray.getZ() * frameScale)};
+
+        SlabHit slabHit = new SlabHit();
+        if(!this.intersectSlabs(localStart, localRay, 0, 0, 0, 3.0f, slabHit)) { return null; }
+        boolean rayStartsOutside = slabHit.entryT >= 0.0f;
+        double tEntered = rayStartsOutside ? this.findExactEntryT(rayStartPoint, ray, slabHit.entryAxis,
+                                                                  this.backBottomLeftVertex.getX(), this.backBottomLeftVertex.getY(), this.backBottomLeftVertex.getZ(),
+                                                                  this.edgeLength) : 0.0;
+        if(this.spongeLevel == 0) {
+            return this.createIntersection(rayStartPoint, ray, tEntered, slabHit.entryAxis);
+        }
+        float[] enteredStart = this.rebaseStartPoint(rayStartPoint, ray, tEntered, rayStartsOutside, slabHit.entryAxis,
+                                                     this.backBottomLeftVertex.getX(), this.backBottomLeftVertex.getY(), this.backBottomLeftVertex.getZ(),
+                                                     this.edgeLength);
+        return this.traverseSubCubes(enteredStart, localRay, this.spongeLevel, tEntered,
+                                     this.backBottomLeftVertex.getX(), this.backBottomLeftVertex.getY(), this.backBottomLeftVertex.getZ(),
+                                     this.edgeLength, rayStartPoint, ray, slabHit);
+    }
+
+    /**
+     * Checks the 20 sub-cubes of a cube (the other 7 are the holes in the sponge) against the ray in the cube's local frame,
+     * then visits the intersected ones in order of their entry t-values, so the first intersection found is always the nearest one.
+     * A ray can pass through at most 7 of the 27 sub-cubes, so at most that many are ever visited.
+     * Sub-cubes at the deepest level of the sponge are solid, so hitting one is the intersection; any other sub-cube is descended into
+     * by moving the ray's start point up to where it enters that sub-cube and rebasing the ray into the sub-cube's local frame.
+     * The t-value of the moved start point (tOffset) is kept in double precision so the final t-value stays in world terms.
+     */
+    private CubeIntersection traverseSubCubes(float[] localStart, float[] localRay, int levelInSponge, double tOffset,
+                                              double cubeX, double cubeY, double cubeZ, double cubeEdgeLength,
+                                              Point3D rayStartPoint, Point3D ray, SlabHit slabHit) {
+        float[] entryTValues = new float[20];
+        int[] entryAxes = new int[20];
+        int[] subCubeIndices = new int[20];
+        int intersectedCount = 0;
+
+        for(int yIndex = 0; yIndex < 3; yIndex++) {
+            for(int zIndex = 0; zIndex < 3; zIndex++) {
+                for(int xIndex = 0; xIndex < 3; xIndex++) {
+                    if(MengerSponge.isHole(xIndex, yIndex, zIndex)) { continue; }
+                    if(!this.intersectSlabs(localStart, localRay, xIndex, yIndex, zIndex, 1.0f, slabHit)) { continue; }
+                    // Insertion sort by entry t-value so the sub-cubes are visited from nearest to farthest
+                    int insertAt = intersectedCount;
+                    while(insertAt > 0 && entryTValues[insertAt - 1] > slabHit.entryT) {
+                        entryTValues[insertAt] = entryTValues[insertAt - 1];
+                        entryAxes[insertAt] = entryAxes[insertAt - 1];
+                        subCubeIndices[insertAt] = subCubeIndices[insertAt - 1];
+                        insertAt--;
+                    }
+                    entryTValues[insertAt] = slabHit.entryT;
+                    entryAxes[insertAt] = slabHit.entryAxis;
+                    subCubeIndices[insertAt] = (yIndex * 9) + (zIndex * 3) + xIndex;
+                    intersectedCount++;
+                }
+            }
+        }
+
+        double subCubeEdgeLength = cubeEdgeLength / 3.0;
+        int nextLevel = levelInSponge - 1;
+        for(int i = 0; i < intersectedCount; i++) {
+            int xIndex = subCubeIndices[i] % 3;
+            int zIndex = (subCubeIndices[i] / 3) % 3;
+            int yIndex = subCubeIndices[i] / 9;
+            double subCubeX = cubeX + (xIndex * subCubeEdgeLength);
+            double subCubeY = cubeY + (yIndex * subCubeEdgeLength);
+            double subCubeZ = cubeZ + (zIndex * subCubeEdgeLength);
+            // Rebase the ray into the sub-cube's frame, where the sub-cube spans [0, 3]. The float entry t-value only decides
+            // whether the ray's real start point is already inside the sub-cube; the t-value used to move the start point is recomputed exactly
+            boolean rayStartsOutside = entryTValues[i] >= (float) -tOffset;
+            double tEntered = rayStartsOutside ? this.findExactEntryT(rayStartPoint, ray, entryAxes[i], subCubeX, subCubeY, subCubeZ, subCubeEdgeLength)
+                                               : 0.0;
+            if(nextLevel == 0) {
+                return this.createIntersection(rayStartPoint, ray, tEntered, entryAxes[i]);
+            }
+            float[] subCubeStart = this.rebaseStartPoint(rayStartPoint, ray, tEntered, rayStartsOutside, entryAxes[i],
+                                                         subCubeX, subCubeY, subCubeZ, subCubeEdgeLength);
+            float[] subCubeRay = new float[] {localRay[0] * 3.0f, localRay[1] * 3.0f, localRay[2] * 3.0f};
+            CubeIntersection intersection = this.traverseSubCubes(subCubeStart, subCubeRay, nextLevel, tEntered,
+                                                                  subCubeX, subCubeY, subCubeZ, subCubeEdgeLength, rayStartPoint, ray, slabHit);
+            if(intersection != null) { return intersection; }
+        }
+        return null;
+    }
+
+    /**
+     * Solves for the t-value at which the ray crosses the face of a cube it enters through, using the world ray (P = P0 + tv) in double precision
+     * for just the coordinate along the entry axis. The float slab test picks which face that is, but its t-value is only as precise as the
+     * cube the test was done in, which is too coarse for cubes several levels further down.
+     */
+    private double findExactEntryT(Point3D rayStartPoint, Point3D ray, int entryAxis, double cubeX, double cubeY, double cubeZ, double cubeEdgeLength) {
+        double startComponent = (entryAxis == 0) ? rayStartPoint.getX() : ((entryAxis == 1) ? rayStartPoint.getY() : rayStartPoint.getZ());
+        double rayComponent = (entryAxis == 0) ? ray.getX() : ((entryAxis == 1) ? ray.getY() : ray.getZ());
+        double cubeMin = (entryAxis == 0) ? cubeX : ((entryAxis == 1) ? cubeY : cubeZ);
+        double facePosition = (rayComponent > 0) ? cubeMin : (cubeMin + cubeEdgeLength);
+        return Math.max((facePosition - startComponent) / rayComponent, 0.0);
+    }
+
+    /**
+     * Finds the point at which the ray enters a cube, in the cube's local frame. The point is computed in double precision from the world ray
+     * (P = P0 + tv) and the cube's back bottom left vertex, and only then converted to float, so its precision depends only on the size of this cube.
+     * If the ray starts outside the cube, the coordinate along the entry axis is set to exactly the entered face (0 or 3), since the point lies on it.
+     */
+    private float[] rebaseStartPoint(Point3D rayStartPoint, Point3D ray, double tEntered, boolean rayStartsOutside, int entryAxis,
+                                     double cubeX, double cubeY, double cubeZ, double cubeEdgeLength) {
+        double frameScale = 3.0 / cubeEdgeLength;
+        float[] localStart = new float[] {(float) (((rayStartPoint.getX() + (tEntered * ray.getX())) - cubeX) * frameScale),
+                                          (float) (((rayStartPoint.getY() + (tEntered * ray.getY())) - cubeY) * frameScale),
+                                          (float) (((rayStartPoint.getZ() + (tEntered * ray.getZ())) - cubeZ) * frameScale)};
+        if(rayStartsOutside) {
+            double rayComponent = (entryAxis == 0) ? ray.getX() : ((entryAxis == 1) ? ray.getY() : ray.getZ());
+            localStart[entryAxis] = (rayComponent > 0) ? 0.0f : 3.0f;
+        }
+        return localStart;
+    }
+
+    /**
+     * Same AABB slab algorithm as SpongeCube.intersectWithRay, but in float and for an axis-aligned box in the current local frame
+     * whose min. corner is (minX, minY, minZ) and whose edge length is size. Writes the entry t-value and the axis of the slab
+     * which produced it into slabHit, and returns whether the ray intersects the box.
+     */
+    private boolean intersectSlabs(float[] localStart, float[] localRay, float minX, float minY, float minZ, float size, SlabHit slabHit) {
+        float entryT = Float.NEGATIVE_INFINITY;
+        float exitT = Float.POSITIVE_INFINITY;
+        int entryAxis = 0;
+        for(int axis = 0; axis < 3; axis++) {
+            float boxMin = (axis == 0) ? minX : ((axis == 1) ? minY : minZ);
+            float t0 = (boxMin - localStart[axis]) / localRay[axis];
+            float t1 = ((boxMin + size) - localStart[axis]) / localRay[axis];
+            float nearT = Math.min(t0, t1);
+            float farT = Math.max(t0, t1);
+            if(nearT > entryT) {
+                entryT = nearT;
+                entryAxis = axis;
+            }
+            if(farT < exitT) { exitT = farT; }
+        }
+        slabHit.entryT = entryT;
+        slabHit.entryAxis = entryAxis;
+        return !(exitT < 0 || exitT < entryT); // Same rejection test as SpongeCube
+    }
+
+    /**
+     * Creates the intersection with a solid cube at the deepest level of the sponge from the exact t-value at which the ray enters it.
+     * The intersection point is found from the world ray in double precision, the same way as for the double precision traversal,
+     * and the normal comes from the axis of the slab that produced the entry t-value.
+     */
+    private CubeIntersection createIntersection(Point3D rayStartPoint, Point3D ray, double tEntered, int entryAxis) {
+        CubeIntersection intersection = new CubeIntersection(tEntered, entryAxis);
+        intersection.findIntersectionPoint(rayStartPoint, ray);
+        intersection.findIntersectedFaceNormal(ray);
+        return intersection;
+    }
+
+}
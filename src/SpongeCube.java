@@ -27,7 +27,8 @@ public class SpongeCube {
      * The first step in the algorithm is finding the t-intervals at which the ray intersects with the bounding planes of the cube
      * by solving for t for each min. and max. x, y, and z of the cube (using the ray eqn. P = P0 + tv).
      * The next step is determining if/where the intervals overlap: if they do overlap, the ray actually intersected within the bounds of the cube.
-     * The minimum of the overlapping t-values, if such values existed, is used as it is the t-value for the point at which the ray first intersected
+     * The minimum of the overlapping t-values, if such values existed, is used as it is the t-value for the point at which the ray first intersected.
+     * The axis of the slab which produced that t-value is kept so the normal of the entered face can be found without comparing coordinates.
      */
     public boolean intersectWithRay(Point3D rayStartPoint, Point3D ray) {
         // Find the t-intervals
@@ -37,9 +38,10 @@ public class SpongeCube {
         double[] overlappingTInterval = this.findOverlappingTInterval(tIntervals);
         double minOverlappingT = overlappingTInterval[0];
         double maxOverlappingT = overlappingTInterval[1];
+        int entryAxis = (int) overlappingTInterval[2];
         if(maxOverlappingT < 0 || maxOverlappingT < minOverlappingT) { return false; } // Intervals don't overlap or ray does not start before the sponge - no intersection
-        if(minOverlappingT < 0) { this.intersectionWithRay = new CubeIntersection(maxOverlappingT); } // Ray starts inside the sponge, so must use maxOverlappingT for the 2nd intersection point as the t-value
-        this.intersectionWithRay = new CubeIntersection(minOverlappingT); // Use t of first intersection point
+        if(minOverlappingT < 0) { this.intersectionWithRay = new CubeIntersection(maxOverlappingT, entryAxis); } // Ray starts inside the sponge, so must use maxOverlappingT for the 2nd intersection point as the t-value
+        this.intersectionWithRay = new CubeIntersection(minOverlappingT, entryAxis); // Use t of first intersection point
         return true;
     }
 
@@ -49,7 +51,7 @@ public class SpongeCube {
      */
     public void findIntersectionPointAndNormal(Point3D rayStartPoint, Point3D ray) {
         this.intersectionWithRay.findIntersectionPoint(rayStartPoint, ray);
-        this.intersectionWithRay.findIntersectedFaceNormal(this.backBottomLeftVertex, this.frontUpperRightVertex);
+        this.intersectionWithRay.findIntersectedFaceNormal(ray);
     }
 
     /**
@@ -79,6 +81,7 @@ public class SpongeCube {
      * This is the interval at which the ray intersects within the bounds of the cube.
      * This is first done by finding the min. and max. of each of the x, y, and z t-intervals,
      * and the finding the max of the minimums and the min of the maximums to get the interval that overlaps all 3.
+     * The third returned value is the axis (0 = x, 1 = y, 2 = z) whose minimum gave the min. overlapping t, i.e. the slab the ray entered through.
      */
     private double[] findOverlappingTInterval(double[][] tIntervals) {
         // Find mins and maxes of each t-interval
@@ -91,10 +94,13 @@ public class SpongeCube {
                                             Math.max(tIntervals[2][0], tIntervals[2][1])};
 
         // Find max of mins to find min overlapping t
-        double minOverlappingT = Math.max(Math.max(minTValues[0], minTValues[1]), minTValues[2]);
+        int entryAxis = 0;
+        if(minTValues[1] > minTValues[entryAxis]) { entryAxis = 1; }
+        if(minTValues[2] > minTValues[entryAxis]) { entryAxis = 2; }
+        double minOverlappingT = minTValues[entryAxis];
         //Find min on maxes to find max overlapping t
         double maxOverlappingT = Math.min(Math.min(maxTValues[0], maxTValues[1]), maxTValues[2]);
-        return new double[] {minOverlappingT, maxOverlappingT};
+        return new double[] {minOverlappingT, maxOverlappingT, entryAxis};
     }
 
     public Point3D getBackBottomLeftVertex() { return backBottomLeftVertex; }
@@ -0,0 +1,150 @@
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+import javax.swing.SwingUtilities;
+
+/**
+ * Check which drives a Canvas in time-budget mode the same way an interactive user does: orbits the camera with arrow key presses
+ * and paints a frame after each one, so every frame goes through FrameTimeBudget.recordFrameTime. With a budget no frame can meet,
+ * the resolution and sponge level must drop to their minimums; with a budget every frame meets, they must go up to full quality.
+ * Also checks that the full quality frame rendered once the camera is still doesn't block the event dispatch thread,
+ * and is thrown away when the camera moves, even if it had already finished rendering but wasn't shown yet.
+ * Runs headless and exits with a non-zero status on failure.
+ */
+public class CanvasFrameBudgetCheck {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        SwingUtilities.invokeAndWait(() -> {
+            checkTightBudget();
+            checkGenerousBudget();
+            checkInvalidBudget();
+        });
+        checkFullQualityRenderInBackground();
+        checkCameraMoveAfterFullQualityRenderFinished();
+        if(failures > 0) {
+            System.out.println("FAILED: " + failures + " checks failed");
+            System.exit(1);
+        }
+        System.out.println("OK");
+        System.exit(0);
+    }
+
+    /** A 1 ms budget can't be met, so after enough frames the budget should be at the lowest scale and sponge level. */
+    private static void checkTightBudget() {
+        Canvas canvas = new Canvas(1);
+        int fullSpongeLevel = canvas.getFrameTimeBudget().getFullSpongeLevel();
+        Point3D startingCamera = canvas.getCameraPosition();
+        paintFrames(canvas, 12);
+        FrameTimeBudget budget = canvas.getFrameTimeBudget();
+        check(canvas.getCameraPosition().subtractVector(startingCamera).magnitude() > 0, "arrow keys should move the camera");
+        check(budget.getRenderScale() == 0.25, "tight budget should reach the lowest scale, got " + budget.getRenderScale());
+        check(budget.getSpongeLevel() < fullSpongeLevel, "tight budget should drop sponge levels, got level " + budget.getSpongeLevel());
+    }
+
+    /** A one minute budget is always met, so the budget should go straight up to full resolution and stay at the full sponge level. */
+    private static void checkGenerousBudget() {
+        Canvas canvas = new Canvas(60000);
+        paintFrames(canvas, 2);
+        FrameTimeBudget budget = canvas.getFrameTimeBudget();
+        check(budget.getRenderScale() == 1.0, "generous budget should reach full resolution, got " + budget.getRenderScale());
+        check(budget.getSpongeLevel() == budget.getFullSpongeLevel(), "generous budget should keep the full sponge level, got " + budget.getSpongeLevel());
+    }
+
+    private static void checkInvalidBudget() {
+        try {
+            new Canvas(0);
+            check(false, "a target frame time of 0 should be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Leaves the camera still long enough for the full quality frame to start rendering, then makes sure the event dispatch thread
+     * still responds right away while it renders, that the frame is shown once it is done, and that moving the camera stops showing it.
+     */
+    private static void checkFullQualityRenderInBackground() throws Exception {
+        Canvas[] canvas = new Canvas[1];
+        SwingUtilities.invokeAndWait(() -> {
+            canvas[0] = new Canvas(1000);
+            paintFrames(canvas[0], 1);
+        });
+        Thread.sleep(700);
+
+        long start = System.nanoTime();
+        SwingUtilities.invokeAndWait(() -> { });
+        long waitMillis = (System.nanoTime() - start) / 1000000;
+        check(waitMillis < 250, "event dispatch thread should respond while the full quality frame renders, took " + waitMillis + " ms");
+
+        boolean[] showingFullQuality = new boolean[1];
+        for(int i = 0; i < 100 && !showingFullQuality[0]; i++) {
+            Thread.sleep(100);
+            SwingUtilities.invokeAndWait(() -> showingFullQuality[0] = canvas[0].isShowingFullQualityFrame());
+        }
+        check(showingFullQuality[0], "full quality frame should be shown once the camera is still");
+
+        SwingUtilities.invokeAndWait(() -> {
+            canvas[0].setCameraPosition(new Point3D(1500.0, -1200.0, 1500.0));
+            showingFullQuality[0] = canvas[0].isShowingFullQualityFrame();
+        });
+        check(!showingFullQuality[0], "moving the camera should stop showing the full quality frame");
+    }
+
+    /**
+     * Moves the camera after the full quality frame has finished rendering in the background but before the worker has handed it
+     * to the event dispatch thread, by holding the event dispatch thread until the render is finished. The stale frame must not be shown.
+     */
+    private static void checkCameraMoveAfterFullQualityRenderFinished() throws Exception {
+        Canvas[] canvas = new Canvas[1];
+        SwingUtilities.invokeAndWait(() -> {
+            canvas[0] = new Canvas(1000);
+            paintFrames(canvas[0], 1);
+        });
+        Thread.sleep(700);
+
+        boolean[] renderFinished = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                for(int i = 0; i < 300 && !renderFinished[0]; i++) {
+                    Thread.sleep(100);
+                    renderFinished[0] = canvas[0].isFullQualityRenderFinished();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            canvas[0].setCameraPosition(new Point3D(1500.0, -1200.0, 1500.0));
+        });
+        check(renderFinished[0], "full quality frame should finish rendering in the background");
+
+        // Long enough for the finished worker to be handed to the event dispatch thread, but before a new full quality render could start
+        Thread.sleep(300);
+        boolean[] showingFullQuality = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> showingFullQuality[0] = canvas[0].isShowingFullQualityFrame());
+        check(!showingFullQuality[0], "a full quality frame finished before the camera moved should not be shown after the move");
+    }
+
+    /** Presses the right arrow key and paints a frame, as many times as specified. */
+    private static void paintFrames(Canvas canvas, int frameCount) {
+        canvas.setSize(canvas.getPreferredSize());
+        BufferedImage screen = new BufferedImage(canvas.getWidth(), canvas.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for(int i = 0; i < frameCount; i++) {
+            // Headless there is no focus owner for key events to be dispatched to, so hand the key press to the canvas's key listeners directly
+            KeyEvent rightArrow = new KeyEvent(canvas, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, KeyEvent.VK_RIGHT, KeyEvent.CHAR_UNDEFINED);
+            for(KeyListener keyListener : canvas.getKeyListeners()) {
+                keyListener.keyPressed(rightArrow);
+            }
+            canvas.paintComponent(screen.getGraphics());
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if(!condition) {
+            System.out.println("Check failed: " + message);
+            failures++;
+        }
+    }
+
+}
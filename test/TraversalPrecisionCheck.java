@@ -0,0 +1,79 @@
+import java.util.Random;
+
+/**
+ * Check which fires the same random rays through both the double precision traversal and the single precision traversal
+ * of deep sponges, and makes sure they find the same intersection. Camera rays start at the default camera position, outside the sponge.
+ * For each camera ray that hits, shadow rays are also fired towards both lights from the intersection point shifted slightly along the normal,
+ * exactly as RayTracer does, so they start inside the starting cube of the sponge.
+ * Two intersections agree if both rays miss, or both hit with the same normal and exactly the same t-value. Both traversals solve for the t-value
+ * of the entered face with the same double precision formula (face - start) / ray component, so the t-values are only equal if the same face
+ * of the same cube was hit; any difference at all means the single precision traversal picked a different cube or face.
+ * Exits with a non-zero status if any ray disagrees.
+ */
+public class TraversalPrecisionCheck {
+
+    private static final int CAMERA_RAY_COUNT = 1000;
+    private static final Point3D CAMERA = new Point3D(1400.0, -1200.0, 1600.0);
+    private static final Point3D[] LIGHTS = new Point3D[] {new Point3D(1000.0, -700.0, 1000.0), new Point3D(-1000.0, -1000.0, 1000.0)};
+
+    public static void main(String[] args) {
+        int failures = 0;
+        for(int spongeLevel : new int[] {9, 11}) {
+            failures += checkLevel(spongeLevel);
+        }
+        if(failures > 0) {
+            System.out.println("FAILED: " + failures + " rays disagreed");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /** Compares both traversals at one sponge level and returns how many rays disagreed. */
+    private static int checkLevel(int spongeLevel) {
+        Point3D backBottomLeftVertex = new Point3D(-500.0, -500.0, -500.0);
+        double edgeLength = 1000.0;
+        MengerSponge doubleSponge = new MengerSponge(backBottomLeftVertex, edgeLength, spongeLevel, false);
+        MengerSponge floatSponge = new MengerSponge(backBottomLeftVertex, edgeLength, spongeLevel, true);
+        Random random = new Random(spongeLevel);
+
+        int cameraHits = 0;
+        int shadowRays = 0;
+        int shadowHits = 0;
+        int failures = 0;
+        for(int i = 0; i < CAMERA_RAY_COUNT; i++) {
+            // Aim at a random point inside the starting cube so most rays reach the deep levels of the sponge
+            Point3D target = new Point3D(-500.0 + (random.nextDouble() * edgeLength),
+                                         -500.0 + (random.nextDouble() * edgeLength),
+                                         -500.0 + (random.nextDouble() * edgeLength));
+            Point3D cameraRay = target.subtractVector(CAMERA).normalize();
+            CubeIntersection expected = doubleSponge.intersectWithRay(CAMERA, cameraRay);
+            CubeIntersection actual = floatSponge.intersectWithRay(CAMERA, cameraRay);
+            if(!agree(expected, actual)) { failures++; }
+            if(expected == null) { continue; }
+            cameraHits++;
+
+            Point3D shiftedIntersectionPoint = expected.getIntersectionPoint().addVector(expected.getNormalVector().scale(0.0001));
+            for(Point3D light : LIGHTS) {
+                Point3D lightRay = light.subtractVector(expected.getIntersectionPoint());
+                CubeIntersection expectedShadow = doubleSponge.intersectWithRay(shiftedIntersectionPoint, lightRay);
+                CubeIntersection actualShadow = floatSponge.intersectWithRay(shiftedIntersectionPoint, lightRay);
+                if(!agree(expectedShadow, actualShadow)) { failures++; }
+                shadowRays++;
+                if(expectedShadow != null) { shadowHits++; }
+            }
+        }
+        System.out.println("Level " + spongeLevel + ": " + cameraHits + "/" + CAMERA_RAY_COUNT + " camera rays hit, "
+                           + shadowHits + "/" + shadowRays + " shadow rays hit, " + failures + " disagreements");
+        return failures;
+    }
+
+    /** Whether the two traversals found the same intersection (or both found none). */
+    private static boolean agree(CubeIntersection expected, CubeIntersection actual) {
+        if(expected == null || actual == null) {
+            return expected == actual;
+        }
+        boolean sameNormal = expected.getNormalVector().subtractVector(actual.getNormalVector()).magnitude() == 0.0;
+        return sameNormal && expected.getTValue() == actual.getTValue();
+    }
+
+}